@@ -0,0 +1,32 @@
+import java.util.function.IntConsumer;
+
+/**
+ * AsyncDiningServer Interface
+ * A DiningServer that can also be driven without blocking, e.g. by the
+ * single-threaded DiningSimulation: forks are requested without waiting,
+ * and the server reports every grant it makes to a listener
+ */
+public interface AsyncDiningServer extends DiningServer {
+
+    /**
+     * Set the listener told whenever the server lets a philosopher eat
+     * Set it before any philosopher starts; it is called while the server
+     * applies the transition, so it must not call back into the server
+     * @param listener Receives the number of the philosopher granted forks
+     */
+    public void setGrantListener(IntConsumer listener);
+
+    /**
+     * Called by a philosopher when it wishes to eat, without waiting for the forks
+     * The grant is reported to the listener, possibly before this returns.
+     * Once granted, the philosopher gives the forks back with returnForks().
+     * @param philosopherNumber The ID of the philosopher
+     */
+    public void requestForks(int philosopherNumber);
+
+    /**
+     * Put every philosopher back to THINKING with no request pending
+     * Only call while no philosopher is using the server.
+     */
+    public void reset();
+}
@@ -0,0 +1,243 @@
+import java.io.PrintStream;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * AsyncTransitionLog - Prints state transitions from a background writer thread
+ * Each recording thread appends to its own lock-free ring buffer (single
+ * producer, single consumer), so record() costs one sequence number and
+ * a few stores. Sequence numbers are taken inside the caller's critical
+ * section, so they follow the order in which the server applied the
+ * transitions. The writer drains all buffers and prints strictly in
+ * sequence order, holding back anything that arrives ahead of a gap
+ * until the missing entry has been published.
+ * If a buffer is full the transition is dropped rather than blocking the
+ * caller; the number of dropped transitions is reported on close().
+ * A thread's buffer is created by register() (or its first record()) and
+ * dropped by the writer once the thread has died and the buffer is drained.
+ */
+public class AsyncTransitionLog implements TransitionLog {
+
+    // Default capacity of each per-thread buffer (a power of two)
+    private static final int DEFAULT_CAPACITY = 8192;
+
+    // How long the writer sleeps when there is nothing to print
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    // Bits of an entry holding the transition ordinal
+    private static final int TRANSITION_BITS = 3;
+
+    /**
+     * Ring buffer written by one thread and drained by the writer
+     */
+    private static class Buffer {
+        Thread owner;
+        long[] sequences;
+        int[] entries;              // philosopherNumber << TRANSITION_BITS | transition ordinal
+        int[] values;
+        AtomicLong head = new AtomicLong();   // next slot to drain (writer)
+        AtomicLong tail = new AtomicLong();   // next slot to fill (owner)
+        volatile long dropped;
+
+        Buffer(Thread owner, int capacity) {
+            this.owner = owner;
+            sequences = new long[capacity];
+            entries = new int[capacity];
+            values = new int[capacity];
+        }
+    }
+
+    /**
+     * A drained transition waiting to be printed
+     */
+    private static class Entry {
+        long sequence;
+        int entry;
+        int value;
+
+        Entry(long sequence, int entry, int value) {
+            this.sequence = sequence;
+            this.entry = entry;
+            this.value = value;
+        }
+    }
+
+    private static final Transition[] TRANSITIONS = Transition.values();
+
+    private int capacity;
+    private PrintStream out;
+    private Queue<Buffer> buffers;
+    private ThreadLocal<Buffer> localBuffer;
+    private AtomicLong sequence;
+    private Thread writer;
+    private volatile boolean running;
+
+    // Writer-only state: entries waiting for their turn, and drops of retired buffers
+    private PriorityQueue<Entry> pending;
+    private long nextSequence;
+    private long retiredDropped;
+
+    /**
+     * Constructor - Start a writer printing to the given stream
+     * @param out Stream the transitions are printed to
+     */
+    public AsyncTransitionLog(PrintStream out) {
+        this(out, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor - Start a writer printing to the given stream
+     * @param out Stream the transitions are printed to
+     * @param capacity Transitions each thread can buffer (rounded up to a power of two)
+     */
+    public AsyncTransitionLog(PrintStream out, int capacity) {
+        this.capacity = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.out = out;
+        buffers = new ConcurrentLinkedQueue<>();
+        localBuffer = ThreadLocal.withInitial(() -> {
+            Buffer buffer = new Buffer(Thread.currentThread(), this.capacity);
+            buffers.add(buffer);
+            return buffer;
+        });
+        sequence = new AtomicLong();
+        pending = new PriorityQueue<>((a, b) -> Long.compare(a.sequence, b.sequence));
+
+        running = true;
+        writer = new Thread(this::writeLoop, "TransitionLog-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Create the calling thread's buffer now, outside any critical section
+     */
+    @Override
+    public void register() {
+        localBuffer.get();
+    }
+
+    @Override
+    public void record(int philosopherNumber, Transition transition, int value) {
+        Buffer buffer = localBuffer.get();
+        long tail = buffer.tail.get();
+        // Check for room first: once a sequence number is taken it must be published
+        if (tail - buffer.head.get() >= capacity) {
+            buffer.dropped = buffer.dropped + 1;
+            return;
+        }
+        int slot = (int) (tail & (capacity - 1));
+        buffer.sequences[slot] = sequence.getAndIncrement();
+        buffer.entries[slot] = philosopherNumber << TRANSITION_BITS | transition.ordinal();
+        buffer.values[slot] = value;
+        // Publish the slot to the writer
+        buffer.tail.lazySet(tail + 1);
+    }
+
+    /**
+     * Stop the writer after it has printed everything recorded so far
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        long dropped = retiredDropped;
+        for (Buffer buffer : buffers) {
+            dropped += buffer.dropped;
+        }
+        if (dropped > 0) {
+            out.println("(" + dropped + " state transitions were dropped: log buffer full)");
+        }
+        out.flush();
+    }
+
+    /**
+     * Writer thread: drain and print in sequence order until closed
+     */
+    private void writeLoop() {
+        while (true) {
+            // Read the flag before draining so nothing recorded before close() is missed
+            boolean stopping = !running;
+            boolean drained = drain();
+            printReady();
+            if (!drained) {
+                if (stopping) {
+                    // Anything still held back sits behind a dropped or unfinished entry
+                    while (!pending.isEmpty()) {
+                        print(pending.poll());
+                    }
+                    return;
+                }
+                LockSupport.parkNanos(this, IDLE_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Move everything currently published in the buffers into the pending queue,
+     * and retire the buffers of threads that have died
+     * @return true if anything was drained
+     */
+    private boolean drain() {
+        boolean drained = false;
+        for (Iterator<Buffer> it = buffers.iterator(); it.hasNext(); ) {
+            Buffer buffer = it.next();
+            // Checked first: once the owner is seen dead, all its records are visible
+            boolean ownerDead = !buffer.owner.isAlive();
+            long head = buffer.head.get();
+            long tail = buffer.tail.get();
+            for (long i = head; i < tail; i++) {
+                int slot = (int) (i & (capacity - 1));
+                pending.add(new Entry(buffer.sequences[slot], buffer.entries[slot], buffer.values[slot]));
+                drained = true;
+            }
+            // Hand the slots back to the owner
+            buffer.head.lazySet(tail);
+            if (ownerDead) {
+                retiredDropped += buffer.dropped;
+                it.remove();
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * Print the pending entries that continue the sequence without a gap
+     */
+    private void printReady() {
+        while (!pending.isEmpty() && pending.peek().sequence == nextSequence) {
+            print(pending.poll());
+        }
+    }
+
+    private void print(Entry entry) {
+        nextSequence = entry.sequence + 1;
+        int philosopherNumber = entry.entry >>> TRANSITION_BITS;
+        Transition transition = TRANSITIONS[entry.entry & ((1 << TRANSITION_BITS) - 1)];
+        switch (transition) {
+            case THINKING:
+                out.println("Philosopher " + philosopherNumber + " is THINKING (finished eating)");
+                break;
+            case STARTED_THINKING:
+                out.println("Philosopher " + philosopherNumber + " is THINKING");
+                break;
+            case FINISHED_DINING:
+                out.println(">>> Philosopher " + philosopherNumber + " has finished dining (ate "
+                    + entry.value + " times)");
+                break;
+            default:
+                out.println("Philosopher " + philosopherNumber + " is " + transition);
+                break;
+        }
+    }
+}
@@ -0,0 +1,315 @@
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.IntFunction;
+
+/**
+ * DiningBenchmark - Throughput and latency harness for DiningServer implementations
+ * Each thread is one philosopher that loops think / takeForks / eat / returnForks,
+ * with busy-work in place of Philosopher's sleeps so synchronization cost shows up.
+ * Latency is reported separately for takeForks and returnForks (a server may
+ * make either call wait).
+ * Every server / thread count / ratio combination runs in a fresh JVM, so no
+ * server inherits JIT profiles of the shared call sites from another
+ * (fork=false runs them all in this JVM instead, e.g. for profiling).
+ *
+ * Usage: java DiningBenchmark [servers=a,b] [threads=5,8,16] [ratios=THINK:EAT,...]
+ *                             [warmup=MS] [measure=MS] [iterations=N]
+ *                             [fork=true|false] [header=true|false]
+ * THINK and EAT are busy-work units per cycle (one unit is a few nanoseconds).
+ */
+public class DiningBenchmark {
+
+    // Every DiningServer implementation, by name, built for a given table size
+    private static final Map<String, IntFunction<DiningServer>> SERVERS = new LinkedHashMap<>();
+    static {
+        SERVERS.put("lock-condition", DiningServerImpl::new);
+        SERVERS.put("flat-combining", FlatCombiningDiningServer::new);
+    }
+
+    // Sink for busy-work results so the JIT cannot remove the loops
+    private static volatile long sink;
+
+    // Set when the current measurement run should end
+    private static volatile boolean stopped;
+
+    /**
+     * Result of one measurement run
+     */
+    private static class Result {
+        long ops;
+        long nanos;
+        LatencyHistogram[] takeLatencies;
+        LatencyHistogram[] returnLatencies;
+    }
+
+    /**
+     * Spin for the given number of work units
+     */
+    private static long busyWork(long units, long seed) {
+        long x = seed;
+        for (long i = 0; i < units; i++) {
+            x = x * 6364136223846793005L + 1442695040888963407L;
+        }
+        return x;
+    }
+
+    /**
+     * Run all philosophers against one server for a fixed wall-clock time
+     */
+    private static Result runOnce(IntFunction<DiningServer> factory, int threads,
+                                  long thinkUnits, long eatUnits, long durationMillis)
+            throws InterruptedException {
+        DiningServer server = factory.apply(threads);
+        long[] ops = new long[threads];
+        LatencyHistogram[] takeLatencies = new LatencyHistogram[threads];
+        LatencyHistogram[] returnLatencies = new LatencyHistogram[threads];
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch go = new CountDownLatch(1);
+        stopped = false;
+
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            final int id = i;
+            takeLatencies[i] = new LatencyHistogram();
+            returnLatencies[i] = new LatencyHistogram();
+            workers[i] = new Thread(() -> {
+                LatencyHistogram takeLatency = takeLatencies[id];
+                LatencyHistogram returnLatency = returnLatencies[id];
+                long x = id;
+                long count = 0;
+                ready.countDown();
+                try {
+                    go.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                while (!stopped) {
+                    x = busyWork(thinkUnits, x);
+
+                    long start = System.nanoTime();
+                    server.takeForks(id);
+                    takeLatency.record(System.nanoTime() - start);
+
+                    x = busyWork(eatUnits, x);
+
+                    start = System.nanoTime();
+                    server.returnForks(id);
+                    returnLatency.record(System.nanoTime() - start);
+                    count++;
+                }
+                ops[id] = count;
+                sink = x;
+            }, "Philosopher-" + i);
+            workers[i].start();
+        }
+
+        ready.await();
+        long start = System.nanoTime();
+        go.countDown();
+        Thread.sleep(durationMillis);
+        stopped = true;
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        Result result = new Result();
+        result.nanos = System.nanoTime() - start;
+        result.takeLatencies = takeLatencies;
+        result.returnLatencies = returnLatencies;
+        for (long count : ops) {
+            result.ops += count;
+        }
+        return result;
+    }
+
+    private static long[] parseLongs(String text) {
+        String[] parts = text.split(",");
+        long[] values = new long[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            values[i] = Long.parseLong(parts[i].trim());
+        }
+        return values;
+    }
+
+    private static long[] parseRatio(String ratio) {
+        String[] parts = ratio.split(":");
+        try {
+            if (parts.length == 2) {
+                return new long[] { Long.parseLong(parts[0].trim()), Long.parseLong(parts[1].trim()) };
+            }
+        } catch (NumberFormatException e) {
+            // Fall through to the usage message
+        }
+        usage("Invalid ratio: " + ratio + " (expected THINK:EAT)");
+        return null;
+    }
+
+    /**
+     * Warm up, measure and print one row of the table in this JVM
+     */
+    private static void runConfiguration(String name, long threads, String ratio, long warmupMillis,
+                                         long measureMillis, int iterations)
+            throws InterruptedException {
+        IntFunction<DiningServer> factory = SERVERS.get(name);
+        long[] units = parseRatio(ratio);
+        long thinkUnits = units[0];
+        long eatUnits = units[1];
+
+        runOnce(factory, (int) threads, thinkUnits, eatUnits, warmupMillis);
+
+        long ops = 0;
+        long nanos = 0;
+        List<LatencyHistogram> takeLatencies = new ArrayList<>();
+        List<LatencyHistogram> returnLatencies = new ArrayList<>();
+        for (int it = 0; it < iterations; it++) {
+            Result result = runOnce(factory, (int) threads, thinkUnits, eatUnits, measureMillis);
+            ops += result.ops;
+            nanos += result.nanos;
+            takeLatencies.addAll(List.of(result.takeLatencies));
+            returnLatencies.addAll(List.of(result.returnLatencies));
+        }
+
+        System.out.printf("%-16s %7d %11s %14.0f %s %s%n",
+            name, threads, ratio, ops / (nanos / 1e9),
+            formatLatencies(takeLatencies), formatLatencies(returnLatencies));
+    }
+
+    /**
+     * Run one row of the table in a child JVM with the same JVM options and class path
+     */
+    private static void forkConfiguration(String name, long threads, String ratio, long warmupMillis,
+                                          long measureMillis, int iterations)
+            throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(DiningBenchmark.class.getName());
+        command.add("fork=false");
+        command.add("header=false");
+        command.add("servers=" + name);
+        command.add("threads=" + threads);
+        command.add("ratios=" + ratio);
+        command.add("warmup=" + warmupMillis);
+        command.add("measure=" + measureMillis);
+        command.add("iterations=" + iterations);
+
+        // The child prints its row straight to our console
+        Process child = new ProcessBuilder(command).inheritIO().start();
+        int exitCode = child.waitFor();
+        if (exitCode != 0) {
+            System.err.println("Benchmark JVM for " + name + " (threads=" + threads + ", ratio=" + ratio
+                + ") failed with exit code " + exitCode);
+            System.exit(1);
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        List<String> servers = new ArrayList<>(SERVERS.keySet());
+        long[] threadCounts = { 5, 8, 16, 32, 64 };
+        String[] ratios = { "100:100", "1000:100", "100:1000" };
+        long warmupMillis = 500;
+        long measureMillis = 1000;
+        int iterations = 3;
+        boolean fork = true;
+        boolean header = true;
+
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                usage("Expected key=value: " + arg);
+            }
+            String key = arg.substring(0, eq);
+            String value = arg.substring(eq + 1);
+            try {
+                switch (key) {
+                    case "servers":
+                        servers = List.of(value.split(","));
+                        break;
+                    case "threads":
+                        threadCounts = parseLongs(value);
+                        break;
+                    case "ratios":
+                        ratios = value.split(",");
+                        break;
+                    case "warmup":
+                        warmupMillis = Long.parseLong(value);
+                        break;
+                    case "measure":
+                        measureMillis = Long.parseLong(value);
+                        break;
+                    case "iterations":
+                        iterations = Integer.parseInt(value);
+                        break;
+                    case "fork":
+                        fork = Boolean.parseBoolean(value);
+                        break;
+                    case "header":
+                        header = Boolean.parseBoolean(value);
+                        break;
+                    default:
+                        usage("Unknown option: " + key);
+                }
+            } catch (NumberFormatException e) {
+                usage("Invalid number in " + arg);
+            }
+        }
+        for (String name : servers) {
+            if (!SERVERS.containsKey(name)) {
+                usage("Unknown server: " + name + " (known: " + SERVERS.keySet() + ")");
+            }
+        }
+
+        for (String ratio : ratios) {
+            parseRatio(ratio);
+        }
+
+        if (header) {
+            System.out.printf("%-16s %7s %11s %14s %29s %29s%n",
+                "", "", "", "", "takeForks latency (us)", "returnForks latency (us)");
+            System.out.printf("%-16s %7s %11s %14s %9s %9s %9s %9s %9s %9s%n",
+                "Server", "Threads", "Think:Eat", "ops/sec", "p50", "p99", "max", "p50", "p99", "max");
+        }
+        for (String name : servers) {
+            for (long threads : threadCounts) {
+                for (String ratio : ratios) {
+                    if (fork) {
+                        forkConfiguration(name, threads, ratio, warmupMillis, measureMillis, iterations);
+                    } else {
+                        runConfiguration(name, threads, ratio, warmupMillis, measureMillis, iterations);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * p50, p99 and max of the merged histograms, in microseconds
+     */
+    private static String formatLatencies(List<LatencyHistogram> latencies) {
+        LatencyHistogram[] all = latencies.toArray(new LatencyHistogram[0]);
+        long max = 0;
+        for (LatencyHistogram h : all) {
+            max = Math.max(max, h.getMax());
+        }
+        return String.format("%9.2f %9.2f %9.2f",
+            LatencyHistogram.getPercentile(all, 50) / 1e3,
+            LatencyHistogram.getPercentile(all, 99) / 1e3,
+            max / 1e3);
+    }
+
+    private static void usage(String message) {
+        System.err.println(message);
+        System.err.println("Usage: java DiningBenchmark [servers=a,b] [threads=5,8,16] [ratios=THINK:EAT,...]"
+            + " [warmup=MS] [measure=MS] [iterations=N] [fork=true|false] [header=true|false]");
+        System.err.println("Known servers: " + SERVERS.keySet());
+        System.exit(1);
+    }
+}
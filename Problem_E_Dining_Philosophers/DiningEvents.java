@@ -0,0 +1,45 @@
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * DiningEvents - Java Flight Recorder events emitted by DiningStats
+ * Enable with: java -XX:StartFlightRecording=filename=dining.jfr DiningPhilosophersMain
+ */
+public final class DiningEvents {
+
+    private DiningEvents() {
+    }
+
+    /**
+     * A philosopher got both forks after waiting while HUNGRY
+     */
+    @Name("dining.ForkAcquire")
+    @Label("Fork Acquire")
+    @Category("Dining Philosophers")
+    static final class ForkAcquire extends Event {
+        @Label("Philosopher")
+        int philosopher;
+
+        @Label("Wait Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long waitNanos;
+    }
+
+    /**
+     * Total time the dining server lock was held by one takeForks/returnForks call
+     */
+    @Name("dining.LockHold")
+    @Label("Lock Hold")
+    @Category("Dining Philosophers")
+    static final class LockHold extends Event {
+        @Label("Philosopher")
+        int philosopher;
+
+        @Label("Hold Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long holdNanos;
+    }
+}
@@ -1,3 +1,5 @@
+import java.util.Random;
+
 /**
  * Main Program for Dining Philosophers Problem
  * Demonstrates deadlock-free solution using condition variables
@@ -14,14 +16,20 @@ public class DiningPhilosophersMain {
         System.out.println("===================================\n");
         
         // Create the dining server
-        DiningServer server = new DiningServerImpl();
+        // State transitions (the server's and the philosophers' own) are printed
+        // in order by a background writer, outside the server lock
+        TransitionLog log = new AsyncTransitionLog(System.out);
+        DiningServerImpl server = new DiningServerImpl(
+            NUM_PHILOSOPHERS, new DiningStats(NUM_PHILOSOPHERS), log);
+        server.getStats().registerMBean();
         
         // Create philosopher threads
         Thread[] philosophers = new Thread[NUM_PHILOSOPHERS];
         
         for (int i = 0; i < NUM_PHILOSOPHERS; i++) {
             philosophers[i] = new Thread(
-                new Philosopher(i, server, TIMES_TO_EAT),
+                new Philosopher(i, server, TIMES_TO_EAT, new Random(),
+                    TimeDistribution.uniform(100, 500), TimeDistribution.uniform(100, 500), log),
                 "Philosopher-" + i
             );
         }
@@ -40,10 +48,14 @@ public class DiningPhilosophersMain {
         } catch (InterruptedException e) {
             e.printStackTrace();
         }
+        log.close();
         
         System.out.println("\n===================================");
         System.out.println("All philosophers have finished dining!");
         System.out.println("No deadlock occurred!");
-        System.out.println("===================================");
+        System.out.println("===================================\n");
+        
+        // Contention and wait-time summary
+        server.getStats().printSummary(System.out);
     }
 }
\ No newline at end of file
@@ -1,15 +1,19 @@
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntConsumer;
 
 /**
  * DiningServerImpl - Implements the dining philosophers synchronization
  * Uses locks and condition variables to prevent deadlock and starvation
  */
-public class DiningServerImpl implements DiningServer {
+public class DiningServerImpl implements AsyncDiningServer {
+    
+    // Default number of philosophers
+    private static final int DEFAULT_NUM_PHILOSOPHERS = 5;
     
     // Number of philosophers
-    private static final int NUM_PHILOSOPHERS = 5;
+    private int numPhilosophers;
     
     // Philosopher states
     private enum State {
@@ -25,49 +29,142 @@ public class DiningServerImpl implements DiningServer {
     // Condition variable for each philosopher
     private Condition[] self;
     
+    // Contention and wait-time metrics (null when not measured)
+    private DiningStats stats;
+    
+    // Where state transitions are reported (never does I/O under the lock)
+    private TransitionLog log;
+    
+    // Told about every grant (used by non-blocking callers such as the simulation)
+    private IntConsumer grantListener;
+    
     /**
      * Constructor - Initialize the dining server
      */
     public DiningServerImpl() {
-        state = new State[NUM_PHILOSOPHERS];
+        this(DEFAULT_NUM_PHILOSOPHERS);
+    }
+    
+    /**
+     * Constructor - Initialize the dining server for a given table size
+     * @param numPhilosophers Number of philosophers at the table
+     */
+    public DiningServerImpl(int numPhilosophers) {
+        this(numPhilosophers, new DiningStats(numPhilosophers));
+    }
+    
+    /**
+     * Constructor - Initialize the dining server with a given metrics sink
+     * @param numPhilosophers Number of philosophers at the table
+     * @param stats Statistics to record contention and wait times into, or null
+     *              to skip all timing (e.g. under DiningSimulation's virtual clock)
+     */
+    public DiningServerImpl(int numPhilosophers, DiningStats stats) {
+        this(numPhilosophers, stats, TransitionLog.OFF);
+    }
+    
+    /**
+     * Constructor - Initialize the dining server with metrics and a transition log
+     * @param numPhilosophers Number of philosophers at the table
+     * @param stats Statistics to record contention and wait times into, or null
+     * @param log Receives every state transition (TransitionLog.OFF to disable)
+     */
+    public DiningServerImpl(int numPhilosophers, DiningStats stats, TransitionLog log) {
+        this.numPhilosophers = numPhilosophers;
+        this.stats = stats;
+        this.log = log;
+        state = new State[numPhilosophers];
         lock = new ReentrantLock();
-        self = new Condition[NUM_PHILOSOPHERS];
+        self = new Condition[numPhilosophers];
         
         // Initialize all philosophers to THINKING state
-        for (int i = 0; i < NUM_PHILOSOPHERS; i++) {
+        for (int i = 0; i < numPhilosophers; i++) {
             state[i] = State.THINKING;
             self[i] = lock.newCondition();
         }
     }
     
+    /**
+     * Get the contention and wait-time metrics of this server (null if not measured)
+     */
+    public DiningStats getStats() {
+        return stats;
+    }
+    
     /**
      * Get the left neighbor's index
      */
     private int leftNeighbor(int philosopherNumber) {
-        return (philosopherNumber + NUM_PHILOSOPHERS - 1) % NUM_PHILOSOPHERS;
+        return (philosopherNumber + numPhilosophers - 1) % numPhilosophers;
     }
     
     /**
      * Get the right neighbor's index
      */
     private int rightNeighbor(int philosopherNumber) {
-        return (philosopherNumber + 1) % NUM_PHILOSOPHERS;
+        return (philosopherNumber + 1) % numPhilosophers;
+    }
+    
+    /**
+     * Current time for the metrics, or 0 when nothing is measured
+     */
+    private long now() {
+        return stats == null ? 0 : System.nanoTime();
     }
     
     /**
      * Test if philosopher can eat (both neighbors are not eating)
+     * @return true if the philosopher was signalled that they can eat
      */
-    private void test(int philosopherNumber) {
+    private boolean test(int philosopherNumber) {
         if (state[philosopherNumber] == State.HUNGRY &&
             state[leftNeighbor(philosopherNumber)] != State.EATING &&
             state[rightNeighbor(philosopherNumber)] != State.EATING) {
             
             // Philosopher can eat
             state[philosopherNumber] = State.EATING;
-            System.out.println("Philosopher " + philosopherNumber + " is EATING");
+            log.record(philosopherNumber, TransitionLog.Transition.EATING);
             
             // Signal the philosopher that they can eat
             self[philosopherNumber].signal();
+            if (grantListener != null) {
+                grantListener.accept(philosopherNumber);
+            }
+            return true;
+        }
+        return false;
+    }
+    
+    @Override
+    public void setGrantListener(IntConsumer listener) {
+        grantListener = listener;
+    }
+    
+    @Override
+    public void reset() {
+        lock.lock();
+        try {
+            for (int i = 0; i < numPhilosophers; i++) {
+                state[i] = State.THINKING;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Philosopher becomes HUNGRY but does not wait for the forks
+     */
+    @Override
+    public void requestForks(int philosopherNumber) {
+        log.register();
+        lock.lock();
+        try {
+            state[philosopherNumber] = State.HUNGRY;
+            log.record(philosopherNumber, TransitionLog.Transition.HUNGRY);
+            test(philosopherNumber);
+        } finally {
+            lock.unlock();
         }
     }
     
@@ -76,25 +173,48 @@ public class DiningServerImpl implements DiningServer {
      */
     @Override
     public void takeForks(int philosopherNumber) {
+        // Metrics are only tallied here and recorded after unlocking
+        long hungrySince = now();
+        long heldNanos = 0;
+        int wakeups = 0;
+        boolean interrupted = false;
+        log.register();
         lock.lock();
+        long lockedAt = now();
         try {
             // Change state to HUNGRY
             state[philosopherNumber] = State.HUNGRY;
-            System.out.println("Philosopher " + philosopherNumber + " is HUNGRY");
+            log.record(philosopherNumber, TransitionLog.Transition.HUNGRY);
             
-            // Try to acquire both forks
+            // Try to acquire both forks (granting ourselves wakes nobody)
             test(philosopherNumber);
             
             // If unable to eat, wait
             while (state[philosopherNumber] != State.EATING) {
+                // The lock is released while waiting, so close this hold period
+                heldNanos += now() - lockedAt;
                 try {
                     self[philosopherNumber].await();
+                    wakeups++;
                 } catch (InterruptedException e) {
-                    e.printStackTrace();
+                    // await() has taken the lock back: no I/O here, keep waiting
+                    // and restore the interrupt once the lock is released
+                    interrupted = true;
                 }
+                lockedAt = now();
             }
         } finally {
+            long unlockedAt = now();
             lock.unlock();
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            if (stats != null) {
+                heldNanos += unlockedAt - lockedAt;
+                stats.recordLockHold(philosopherNumber, heldNanos);
+                stats.recordWakeups(philosopherNumber, wakeups);
+                stats.recordAcquire(philosopherNumber, unlockedAt - hungrySince);
+            }
         }
     }
     
@@ -103,17 +223,31 @@ public class DiningServerImpl implements DiningServer {
      */
     @Override
     public void returnForks(int philosopherNumber) {
+        int signals = 0;
+        log.register();
         lock.lock();
+        long lockedAt = now();
         try {
             // Change state to THINKING
             state[philosopherNumber] = State.THINKING;
-            System.out.println("Philosopher " + philosopherNumber + " is THINKING (finished eating)");
+            log.record(philosopherNumber, TransitionLog.Transition.THINKING);
             
             // Test if left and right neighbors can now eat
-            test(leftNeighbor(philosopherNumber));
-            test(rightNeighbor(philosopherNumber));
+            // (a HUNGRY neighbor is blocked in await(), so each grant wakes it)
+            if (test(leftNeighbor(philosopherNumber))) {
+                signals++;
+            }
+            if (test(rightNeighbor(philosopherNumber))) {
+                signals++;
+            }
         } finally {
+            long unlockedAt = now();
             lock.unlock();
+            if (stats != null) {
+                stats.recordLockHold(philosopherNumber, unlockedAt - lockedAt);
+                stats.recordSignals(philosopherNumber, signals);
+                stats.recordMeal(philosopherNumber);
+            }
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,218 @@
+import java.io.PrintStream;
+import java.util.Random;
+
+/**
+ * DiningSimulation - Discrete-event simulation of the philosophers on a virtual clock
+ * Each philosopher repeats think / takeForks / eat / returnForks like Philosopher,
+ * but time only advances from event to event, so no thread ever sleeps.
+ * The whole run is single-threaded and driven by one seeded Random, so the
+ * same seed always gives the same schedule and the same statistics.
+ *
+ * Who eats when is decided by the attached AsyncDiningServer: a hungry
+ * philosopher calls requestForks() and only starts eating when the server
+ * reports the grant, so the server's policy shapes the schedule and the
+ * wait times. Without a server, a built-in reference model grants forks by
+ * the textbook monitor rule (both neighbours not EATING, tested for the
+ * hungry philosopher and for the left then right neighbour after a return);
+ * those numbers describe the model, not any DiningServer.
+ * Build the server without DiningStats (stats null): wall-clock lock hold
+ * and wait times mean nothing under virtual time and only slow the run.
+ */
+public class DiningSimulation {
+
+    private int numPhilosophers;
+    private long seed;
+    private TimeDistribution thinkTime;
+    private TimeDistribution eatTime;
+
+    // Simulation state (valid during and after run)
+    private AsyncDiningServer server;
+    private Random random;
+    private long clock;
+    private long[] nextEvent;
+    private long[] hungrySince;
+    private boolean[] hungry;
+    private boolean[] eating;
+
+    // Results
+    private long[] meals;
+    private LatencyHistogram[] waitTimes;
+    private long events;
+
+    /**
+     * Constructor
+     * @param numPhilosophers Number of philosophers at the table
+     * @param seed Seed of the virtual clock's random source
+     * @param thinkTime Distribution of thinking time in virtual milliseconds
+     * @param eatTime Distribution of eating time in virtual milliseconds
+     */
+    public DiningSimulation(int numPhilosophers, long seed,
+                            TimeDistribution thinkTime, TimeDistribution eatTime) {
+        if (numPhilosophers < 2) {
+            throw new IllegalArgumentException("Need at least 2 philosophers: " + numPhilosophers);
+        }
+        this.numPhilosophers = numPhilosophers;
+        this.seed = seed;
+        this.thinkTime = thinkTime;
+        this.eatTime = eatTime;
+    }
+
+    private int leftNeighbor(int philosopherNumber) {
+        return (philosopherNumber + numPhilosophers - 1) % numPhilosophers;
+    }
+
+    private int rightNeighbor(int philosopherNumber) {
+        return (philosopherNumber + 1) % numPhilosophers;
+    }
+
+    /**
+     * Run the simulation until the given number of meals have been eaten
+     * The server is reset first, so it may have been used before, but no
+     * other thread may use it during the run.
+     * @param server Dining server that grants the forks, or null for the reference model
+     * @param totalMeals Meals to finish (summed over all philosophers)
+     * @throws IllegalStateException if the server makes an unsafe grant or stops granting
+     */
+    public void run(AsyncDiningServer server, long totalMeals) {
+        this.server = server;
+        random = new Random(seed);
+        clock = 0;
+        events = 0;
+        nextEvent = new long[numPhilosophers];
+        hungrySince = new long[numPhilosophers];
+        hungry = new boolean[numPhilosophers];
+        eating = new boolean[numPhilosophers];
+        meals = new long[numPhilosophers];
+        waitTimes = new LatencyHistogram[numPhilosophers];
+
+        // Everybody starts out THINKING
+        for (int i = 0; i < numPhilosophers; i++) {
+            waitTimes[i] = new LatencyHistogram();
+            nextEvent[i] = thinkTime.sample(random);
+        }
+        if (server != null) {
+            // Start from an empty table, whatever an earlier run left behind
+            server.reset();
+            server.setGrantListener(this::startEating);
+        }
+        try {
+            simulate(totalMeals);
+        } finally {
+            if (server != null) {
+                server.setGrantListener(null);
+            }
+        }
+    }
+
+    /**
+     * Event loop
+     */
+    private void simulate(long totalMeals) {
+        long mealsDone = 0;
+        while (mealsDone < totalMeals) {
+            // Earliest pending event; ties go to the lowest philosopher number
+            int p = 0;
+            for (int i = 1; i < numPhilosophers; i++) {
+                if (nextEvent[i] < nextEvent[p]) {
+                    p = i;
+                }
+            }
+            if (nextEvent[p] == Long.MAX_VALUE) {
+                throw new IllegalStateException(
+                    "All philosophers are HUNGRY and none was granted forks at t=" + clock + " ms");
+            }
+            clock = nextEvent[p];
+            events++;
+
+            if (eating[p]) {
+                // Finished eating (thinking starts before any neighbour is granted)
+                eating[p] = false;
+                meals[p]++;
+                mealsDone++;
+                nextEvent[p] = clock + thinkTime.sample(random);
+
+                if (server != null) {
+                    server.returnForks(p);
+                } else {
+                    modelTest(leftNeighbor(p));
+                    modelTest(rightNeighbor(p));
+                }
+            } else {
+                // Finished thinking, now HUNGRY
+                hungry[p] = true;
+                hungrySince[p] = clock;
+                nextEvent[p] = Long.MAX_VALUE;
+
+                if (server != null) {
+                    server.requestForks(p);
+                } else {
+                    modelTest(p);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reference model: grant forks if hungry and neither neighbour is eating
+     */
+    private void modelTest(int p) {
+        if (hungry[p] && !eating[leftNeighbor(p)] && !eating[rightNeighbor(p)]) {
+            startEating(p);
+        }
+    }
+
+    /**
+     * Philosopher p was granted both forks at the current virtual time
+     */
+    private void startEating(int p) {
+        if (!hungry[p] || eating[leftNeighbor(p)] || eating[rightNeighbor(p)]) {
+            throw new IllegalStateException("Unsafe grant to philosopher " + p + " at t=" + clock + " ms");
+        }
+        hungry[p] = false;
+        eating[p] = true;
+        waitTimes[p].record(clock - hungrySince[p]);
+        nextEvent[p] = clock + eatTime.sample(random);
+    }
+
+    /** Virtual time (milliseconds) at which the last event happened */
+    public long getVirtualTime() {
+        return clock;
+    }
+
+    /** Number of events processed */
+    public long getEventCount() {
+        return events;
+    }
+
+    /** Meals eaten by each philosopher */
+    public long[] getMeals() {
+        return meals.clone();
+    }
+
+    /** Virtual time (milliseconds) each philosopher spent HUNGRY before eating */
+    public LatencyHistogram getWaitTimes(int philosopherNumber) {
+        return waitTimes[philosopherNumber];
+    }
+
+    /**
+     * Print a per-philosopher summary of the last run (all times virtual)
+     */
+    public void printSummary(PrintStream out) {
+        out.println("=== Simulation Results (seed " + seed + ") ===");
+        out.printf("%-12s %10s %10s %10s %10s %10s%n",
+            "Philosopher", "Meals", "Wait avg", "Wait p50", "Wait p99", "Wait max");
+        long totalMeals = 0;
+        for (int i = 0; i < numPhilosophers; i++) {
+            LatencyHistogram h = waitTimes[i];
+            out.printf("%-12d %10d %8.2fms %8dms %8dms %8dms%n",
+                i, meals[i], h.getMean(), h.getPercentile(50), h.getPercentile(99), h.getMax());
+            totalMeals += meals[i];
+        }
+        out.printf("Total meals:    %d%n", totalMeals);
+        out.printf("Virtual time:   %d ms (%.2f meals per virtual second)%n",
+            clock, clock == 0 ? 0.0 : totalMeals * 1000.0 / clock);
+        out.printf("Wait p99:       %d ms (all philosophers)%n",
+            LatencyHistogram.getPercentile(waitTimes, 99));
+        out.printf("Events:         %d%n", events);
+    }
+}
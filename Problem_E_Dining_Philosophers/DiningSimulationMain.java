@@ -0,0 +1,81 @@
+/**
+ * Main Program for the virtual-time Dining Philosophers simulation
+ * Usage: java DiningSimulationMain [seed=N] [meals=N] [philosophers=N]
+ *                                  [think=DIST] [eat=DIST] [server=impl|flat|none]
+ * DIST is fixed:N, uniform:MIN:MAX or exp:MEAN (virtual milliseconds)
+ * server=none (the default) runs the reference model; impl and flat let that
+ * DiningServer decide every grant
+ */
+public class DiningSimulationMain {
+
+    public static void main(String[] args) {
+        long seed = 42;
+        long meals = 1_000_000;
+        int numPhilosophers = 5;
+        TimeDistribution thinkTime = TimeDistribution.uniform(100, 500);
+        TimeDistribution eatTime = TimeDistribution.uniform(100, 500);
+        String serverName = "none";
+
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                usage("Expected key=value: " + arg);
+            }
+            String key = arg.substring(0, eq);
+            String value = arg.substring(eq + 1);
+            try {
+                switch (key) {
+                    case "seed":
+                        seed = Long.parseLong(value);
+                        break;
+                    case "meals":
+                        meals = Long.parseLong(value);
+                        break;
+                    case "philosophers":
+                        numPhilosophers = Integer.parseInt(value);
+                        break;
+                    case "think":
+                        thinkTime = TimeDistribution.parse(value);
+                        break;
+                    case "eat":
+                        eatTime = TimeDistribution.parse(value);
+                        break;
+                    case "server":
+                        serverName = value;
+                        break;
+                    default:
+                        usage("Unknown option: " + key);
+                }
+            } catch (IllegalArgumentException e) {
+                usage(e.getMessage());
+            }
+        }
+
+        // "none" runs the built-in reference model instead of a server
+        AsyncDiningServer server = null;
+        if (serverName.equals("impl")) {
+            server = new DiningServerImpl(numPhilosophers, null);
+        } else if (serverName.equals("flat")) {
+            server = new FlatCombiningDiningServer(numPhilosophers, null);
+        } else if (!serverName.equals("none")) {
+            usage("Unknown server: " + serverName);
+        }
+
+        DiningSimulation simulation = new DiningSimulation(numPhilosophers, seed, thinkTime, eatTime);
+
+        long start = System.nanoTime();
+        simulation.run(server, meals);
+        long elapsed = System.nanoTime() - start;
+
+        simulation.printSummary(System.out);
+        System.out.printf("Wall-clock time: %.1f ms%n", elapsed / 1e6);
+    }
+
+    private static void usage(String message) {
+        System.err.println(message);
+        System.err.println("Usage: java DiningSimulationMain [seed=N] [meals=N] [philosophers=N]"
+            + " [think=DIST] [eat=DIST] [server=impl|flat|none]");
+        System.err.println("DIST is fixed:N, uniform:MIN:MAX or exp:MEAN (virtual milliseconds)");
+        System.exit(1);
+    }
+}
@@ -0,0 +1,243 @@
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * DiningStats - Contention and wait-time metrics for a dining server
+ * Every counter belongs to one philosopher and is only written by that
+ * philosopher's own thread, after it has left the server's critical
+ * section, so no atomic read-modify-write is needed on the hot path.
+ * Each philosopher's counters sit in their own 128-byte stride of one
+ * array, so writers never share a cache line (no false sharing between
+ * philosophers)
+ */
+public class DiningStats implements DiningStatsMBean {
+
+    private static final String OBJECT_NAME = "DiningPhilosophers:type=DiningStats";
+
+    // Counter offsets within a philosopher's stride
+    private static final int LOCK_HOLD_NANOS = 0;
+    private static final int LOCK_HOLDS = 1;
+    private static final int SIGNALS = 2;
+    private static final int WAKEUPS = 3;
+    private static final int MEALS = 4;
+    private static final int LAST_MEAL_NANOS = 5;
+
+    // Longs per philosopher: two cache lines, so adjacent strides never touch
+    private static final int STRIDE = 16;
+
+    private int numPhilosophers;
+    private AtomicLongArray counters;
+    private LatencyHistogram[] acquireLatency;
+    private long startNanos;
+
+    /**
+     * Constructor
+     * @param numPhilosophers Number of philosophers being measured
+     */
+    public DiningStats(int numPhilosophers) {
+        this.numPhilosophers = numPhilosophers;
+        // One extra stride in front keeps philosopher 0 away from the array header
+        counters = new AtomicLongArray((numPhilosophers + 1) * STRIDE);
+        acquireLatency = new LatencyHistogram[numPhilosophers];
+        for (int i = 0; i < numPhilosophers; i++) {
+            acquireLatency[i] = new LatencyHistogram();
+        }
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * Philosopher got both forks after being HUNGRY for waitNanos
+     */
+    public void recordAcquire(int philosopherNumber, long waitNanos) {
+        acquireLatency[philosopherNumber].record(waitNanos);
+
+        DiningEvents.ForkAcquire event = new DiningEvents.ForkAcquire();
+        if (event.isEnabled()) {
+            event.philosopher = philosopherNumber;
+            event.waitNanos = waitNanos;
+            event.commit();
+        }
+    }
+
+    /**
+     * Philosopher held the server lock for holdNanos in total during one
+     * takeForks/returnForks call (or one combining turn)
+     */
+    public void recordLockHold(int philosopherNumber, long holdNanos) {
+        add(philosopherNumber, LOCK_HOLD_NANOS, holdNanos);
+        add(philosopherNumber, LOCK_HOLDS, 1);
+
+        DiningEvents.LockHold event = new DiningEvents.LockHold();
+        if (event.isEnabled()) {
+            event.philosopher = philosopherNumber;
+            event.holdNanos = holdNanos;
+            event.commit();
+        }
+    }
+
+    /**
+     * Philosopher's thread woke count threads blocked in the server
+     */
+    public void recordSignals(int philosopherNumber, int count) {
+        if (count > 0) {
+            add(philosopherNumber, SIGNALS, count);
+        }
+    }
+
+    /**
+     * Philosopher woke up count times while waiting for its forks
+     */
+    public void recordWakeups(int philosopherNumber, int count) {
+        if (count > 0) {
+            add(philosopherNumber, WAKEUPS, count);
+        }
+    }
+
+    /**
+     * Philosopher finished a meal
+     */
+    public void recordMeal(int philosopherNumber) {
+        add(philosopherNumber, MEALS, 1);
+        counters.lazySet((philosopherNumber + 1) * STRIDE + LAST_MEAL_NANOS, System.nanoTime());
+    }
+
+    /**
+     * Single-writer increment: an ordered store, no CAS
+     */
+    private void add(int philosopherNumber, int counter, long delta) {
+        int index = (philosopherNumber + 1) * STRIDE + counter;
+        counters.lazySet(index, counters.get(index) + delta);
+    }
+
+    private long get(int philosopherNumber, int counter) {
+        return counters.get((philosopherNumber + 1) * STRIDE + counter);
+    }
+
+    private long total(int counter) {
+        long total = 0;
+        for (int i = 0; i < numPhilosophers; i++) {
+            total += get(i, counter);
+        }
+        return total;
+    }
+
+    /**
+     * Register these statistics with the platform MBean server
+     */
+    public void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(this, name);
+        } catch (JMException e) {
+            System.err.println("Could not register DiningStats MBean: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public long getMealCount() {
+        return total(MEALS);
+    }
+
+    @Override
+    public double getMealsPerSecond() {
+        // Up to the last meal, so the rate stays put once the philosophers stop
+        long lastMeal = startNanos;
+        for (int i = 0; i < numPhilosophers; i++) {
+            long mealNanos = get(i, LAST_MEAL_NANOS);
+            if (get(i, MEALS) > 0 && mealNanos - lastMeal > 0) {
+                lastMeal = mealNanos;
+            }
+        }
+        double seconds = (lastMeal - startNanos) / 1e9;
+        return seconds <= 0 ? 0.0 : getMealCount() / seconds;
+    }
+
+    @Override
+    public long getSignalCount() {
+        return total(SIGNALS);
+    }
+
+    @Override
+    public long getWakeupCount() {
+        return total(WAKEUPS);
+    }
+
+    @Override
+    public double getMeanAcquireLatencyMicros() {
+        long count = 0;
+        long sum = 0;
+        for (LatencyHistogram h : acquireLatency) {
+            count += h.getCount();
+            sum += h.getSum();
+        }
+        return count == 0 ? 0.0 : sum / 1e3 / count;
+    }
+
+    @Override
+    public double getP99AcquireLatencyMicros() {
+        return LatencyHistogram.getPercentile(acquireLatency, 99) / 1e3;
+    }
+
+    @Override
+    public double getMaxAcquireLatencyMicros() {
+        long max = 0;
+        for (LatencyHistogram h : acquireLatency) {
+            max = Math.max(max, h.getMax());
+        }
+        return max / 1e3;
+    }
+
+    @Override
+    public double getMeanLockHoldNanos() {
+        long holds = total(LOCK_HOLDS);
+        return holds == 0 ? 0.0 : (double) total(LOCK_HOLD_NANOS) / holds;
+    }
+
+    @Override
+    public double getTotalLockHoldMicros() {
+        return total(LOCK_HOLD_NANOS) / 1e3;
+    }
+
+    @Override
+    public long[] getMealsPerPhilosopher() {
+        long[] meals = new long[numPhilosophers];
+        for (int i = 0; i < numPhilosophers; i++) {
+            meals[i] = get(i, MEALS);
+        }
+        return meals;
+    }
+
+    /**
+     * Print a per-philosopher and overall summary report
+     */
+    public void printSummary(PrintStream out) {
+        out.println("=== Dining Server Statistics ===");
+        out.printf("%-12s %6s %10s %10s %10s %10s %8s %8s%n",
+            "Philosopher", "Meals", "Wait avg", "Wait p50", "Wait p99", "Wait max", "Signals", "Wakeups");
+        for (int i = 0; i < numPhilosophers; i++) {
+            LatencyHistogram h = acquireLatency[i];
+            out.printf("%-12d %6d %8.2fms %8.2fms %8.2fms %8.2fms %8d %8d%n",
+                i, get(i, MEALS),
+                h.getMean() / 1e6,
+                h.getPercentile(50) / 1e6,
+                h.getPercentile(99) / 1e6,
+                h.getMax() / 1e6,
+                get(i, SIGNALS), get(i, WAKEUPS));
+        }
+        out.printf("Total meals:        %d (%.2f meals/sec)%n", getMealCount(), getMealsPerSecond());
+        out.printf("Acquire latency:    avg %.1f us, p99 %.1f us, max %.1f us%n",
+            getMeanAcquireLatencyMicros(), getP99AcquireLatencyMicros(), getMaxAcquireLatencyMicros());
+        out.printf("Lock hold time:     avg %.0f ns, total %.1f us%n",
+            getMeanLockHoldNanos(), getTotalLockHoldMicros());
+        out.printf("Signals / wakeups:  %d / %d%n", getSignalCount(), getWakeupCount());
+        out.println("================================");
+    }
+}
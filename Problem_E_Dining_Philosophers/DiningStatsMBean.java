@@ -0,0 +1,41 @@
+/**
+ * DiningStatsMBean Interface
+ * Management view of the dining server metrics (registered via JMX)
+ */
+public interface DiningStatsMBean {
+
+    /** Total meals finished by all philosophers */
+    public long getMealCount();
+
+    /** Meals finished per second, from creating the statistics to the last meal */
+    public double getMealsPerSecond();
+
+    /**
+     * Number of wakeup handoffs: times a thread blocked in the server was woken
+     * because its request completed (a grant to a waiting philosopher, or a
+     * finished returnForks). Grants a philosopher makes to itself, without
+     * waiting, are not counted, so this is comparable between servers.
+     */
+    public long getSignalCount();
+
+    /** Number of times a blocked philosopher woke up (from await() or park()) */
+    public long getWakeupCount();
+
+    /** Mean time spent HUNGRY before eating, in microseconds */
+    public double getMeanAcquireLatencyMicros();
+
+    /** 99th percentile time spent HUNGRY before eating, in microseconds */
+    public double getP99AcquireLatencyMicros();
+
+    /** Longest time spent HUNGRY before eating, in microseconds */
+    public double getMaxAcquireLatencyMicros();
+
+    /** Mean time the server lock is held per takeForks/returnForks call, in nanoseconds */
+    public double getMeanLockHoldNanos();
+
+    /** Total time the server lock has been held, in microseconds */
+    public double getTotalLockHoldMicros();
+
+    /** Meals finished by each philosopher */
+    public long[] getMealsPerPhilosopher();
+}
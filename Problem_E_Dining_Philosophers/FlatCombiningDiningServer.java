@@ -0,0 +1,348 @@
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntConsumer;
+
+/**
+ * FlatCombiningDiningServer - Dining philosophers synchronization by flat combining
+ * Each philosopher publishes its take/return request in its own slot. Whichever
+ * thread wins the combiner role applies every published request in one pass,
+ * grants forks to all hungry philosophers whose neighbours are not eating,
+ * and only then wakes the threads whose requests completed. Under heavy
+ * contention this replaces one lock handoff and one condition signal per
+ * transition with a single pass by a thread that already has the state in cache.
+ */
+public class FlatCombiningDiningServer implements AsyncDiningServer {
+
+    // Default number of philosophers
+    private static final int DEFAULT_NUM_PHILOSOPHERS = 5;
+
+    // Request slot values
+    private static final int NONE = 0;      // no request, or request completed
+    private static final int TAKE = 1;      // wants forks, not yet seen by a combiner
+    private static final int WAITING = 2;   // HUNGRY, waiting for both forks
+    private static final int RETURN = 3;    // returning forks, not yet seen by a combiner
+
+    // How long a waiter spins before parking (spinning only helps with spare cores)
+    private static final int SPINS = Runtime.getRuntime().availableProcessors() > 1 ? 256 : 0;
+
+    // How often a waiter then yields (lets a preempted combiner run) before parking
+    private static final int YIELDS = 16;
+
+    // Upper bound on combining passes per turn, so one thread is not stuck combining
+    private static final int MAX_PASSES = 4;
+
+    // Philosopher states
+    private enum State {
+        THINKING, HUNGRY, EATING
+    }
+
+    // Number of philosophers
+    private int numPhilosophers;
+
+    // State of each philosopher (only touched by the current combiner)
+    private State[] state;
+
+    // Published request of each philosopher
+    private AtomicIntegerArray requests;
+
+    // 1 while the philosopher's thread is (about to be) parked
+    private AtomicIntegerArray parked;
+
+    // Thread that owns each slot (written before its request is published)
+    private Thread[] waiters;
+
+    // Held by the thread acting as combiner
+    private AtomicBoolean combining;
+
+    // Where the next grant scan starts, rotated for fairness (combiner only)
+    private int scanStart;
+
+    // Slots completed during a combining turn, one list per combining thread,
+    // so waiters can be unparked after the combiner role is released
+    private int[][] completed;
+
+    // Contention and wait-time metrics (null when not measured)
+    private DiningStats stats;
+
+    // Told about every grant (used by non-blocking callers such as the simulation)
+    private IntConsumer grantListener;
+
+    /**
+     * Constructor - Initialize the dining server
+     */
+    public FlatCombiningDiningServer() {
+        this(DEFAULT_NUM_PHILOSOPHERS);
+    }
+
+    /**
+     * Constructor - Initialize the dining server for a given table size
+     * @param numPhilosophers Number of philosophers at the table
+     */
+    public FlatCombiningDiningServer(int numPhilosophers) {
+        this(numPhilosophers, new DiningStats(numPhilosophers));
+    }
+
+    /**
+     * Constructor - Initialize the dining server with a given metrics sink
+     * @param numPhilosophers Number of philosophers at the table
+     * @param stats Statistics to record contention and wait times into, or null
+     *              to skip all timing (e.g. under DiningSimulation's virtual clock)
+     */
+    public FlatCombiningDiningServer(int numPhilosophers, DiningStats stats) {
+        this.numPhilosophers = numPhilosophers;
+        this.stats = stats;
+        state = new State[numPhilosophers];
+        requests = new AtomicIntegerArray(numPhilosophers);
+        parked = new AtomicIntegerArray(numPhilosophers);
+        waiters = new Thread[numPhilosophers];
+        combining = new AtomicBoolean(false);
+        completed = new int[numPhilosophers][numPhilosophers * MAX_PASSES];
+
+        // Initialize all philosophers to THINKING state
+        for (int i = 0; i < numPhilosophers; i++) {
+            state[i] = State.THINKING;
+        }
+    }
+
+    /**
+     * Get the contention and wait-time metrics of this server (null if not measured)
+     */
+    public DiningStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Current time for the metrics, or 0 when nothing is measured
+     */
+    private long now() {
+        return stats == null ? 0 : System.nanoTime();
+    }
+
+    /**
+     * Get the left neighbor's index
+     */
+    private int leftNeighbor(int philosopherNumber) {
+        return (philosopherNumber + numPhilosophers - 1) % numPhilosophers;
+    }
+
+    /**
+     * Get the right neighbor's index
+     */
+    private int rightNeighbor(int philosopherNumber) {
+        return (philosopherNumber + 1) % numPhilosophers;
+    }
+
+    /**
+     * Philosopher wants to take forks (eat)
+     */
+    @Override
+    public void takeForks(int philosopherNumber) {
+        long hungrySince = now();
+        waiters[philosopherNumber] = Thread.currentThread();
+        requests.set(philosopherNumber, TAKE);
+        awaitCompletion(philosopherNumber);
+        if (stats != null) {
+            stats.recordAcquire(philosopherNumber, System.nanoTime() - hungrySince);
+        }
+    }
+
+    @Override
+    public void setGrantListener(IntConsumer listener) {
+        grantListener = listener;
+    }
+
+    @Override
+    public void reset() {
+        // Taking the combiner role publishes the cleared state to the next combiner
+        while (!combining.compareAndSet(false, true)) {
+            Thread.onSpinWait();
+        }
+        for (int i = 0; i < numPhilosophers; i++) {
+            state[i] = State.THINKING;
+            requests.set(i, NONE);
+            parked.set(i, 0);
+        }
+        scanStart = 0;
+        combining.set(false);
+    }
+
+    /**
+     * Philosopher becomes HUNGRY but does not wait for the forks
+     * Only waits until a combiner has seen the request
+     */
+    @Override
+    public void requestForks(int philosopherNumber) {
+        waiters[philosopherNumber] = Thread.currentThread();
+        requests.set(philosopherNumber, TAKE);
+        while (requests.get(philosopherNumber) == TAKE) {
+            if (!tryCombine(philosopherNumber)) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /**
+     * Philosopher returns forks (finished eating)
+     */
+    @Override
+    public void returnForks(int philosopherNumber) {
+        waiters[philosopherNumber] = Thread.currentThread();
+        requests.set(philosopherNumber, RETURN);
+        awaitCompletion(philosopherNumber);
+        if (stats != null) {
+            stats.recordMeal(philosopherNumber);
+        }
+    }
+
+    /**
+     * Wait until a combiner (possibly this thread) has completed our request
+     */
+    private void awaitCompletion(int philosopherNumber) {
+        int spins = 0;
+        int wakeups = 0;
+        boolean interrupted = false;
+        while (true) {
+            int request = requests.get(philosopherNumber);
+            if (request == NONE) {
+                break;
+            }
+            if (request != WAITING && tryCombine(philosopherNumber)) {
+                continue;
+            }
+            if (spins < SPINS) {
+                spins++;
+                Thread.onSpinWait();
+                continue;
+            }
+            if (spins < SPINS + YIELDS) {
+                spins++;
+                Thread.yield();
+                continue;
+            }
+
+            // Announce the park, then re-check: either the combiner sees the
+            // announcement or we see its release (both sides are volatile)
+            parked.set(philosopherNumber, 1);
+            request = requests.get(philosopherNumber);
+            if (request == WAITING || (request != NONE && combining.get())) {
+                LockSupport.park(this);
+                // Like await(), keep waiting when interrupted; without clearing
+                // the flag park() would return immediately every time
+                if (Thread.interrupted()) {
+                    interrupted = true;
+                } else {
+                    wakeups++;
+                }
+            }
+            parked.set(philosopherNumber, 0);
+        }
+        if (stats != null) {
+            stats.recordWakeups(philosopherNumber, wakeups);
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Try to become the combiner and apply all pending requests
+     * @return true if this thread combined at least once
+     */
+    private boolean tryCombine(int philosopherNumber) {
+        if (combining.get() || !combining.compareAndSet(false, true)) {
+            return false;
+        }
+        int[] done = completed[philosopherNumber];
+        do {
+            long lockedAt = now();
+            int count;
+            long heldNanos;
+            try {
+                count = combine(done);
+            } finally {
+                heldNanos = now() - lockedAt;
+                combining.set(false);
+            }
+
+            // Release the waiters only now, outside the combining section
+            // (a handoff is only counted for a thread that actually parked)
+            int signals = 0;
+            for (int k = 0; k < count; k++) {
+                int i = done[k];
+                if (parked.get(i) == 1) {
+                    LockSupport.unpark(waiters[i]);
+                    signals++;
+                }
+            }
+            if (stats != null) {
+                stats.recordLockHold(philosopherNumber, heldNanos);
+                stats.recordSignals(philosopherNumber, signals);
+            }
+            // A thread that parked while we combined relies on us to serve it
+        } while (hasParkedRequest() && combining.compareAndSet(false, true));
+        return true;
+    }
+
+    /**
+     * Is there an unprocessed request whose thread is parked?
+     */
+    private boolean hasParkedRequest() {
+        for (int i = 0; i < numPhilosophers; i++) {
+            if (parked.get(i) == 1) {
+                int request = requests.get(i);
+                if (request == TAKE || request == RETURN) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Apply published requests in batches, then grant forks where possible
+     * @param done Receives the slots whose requests were completed
+     * @return Number of slots written to done
+     */
+    private int combine(int[] done) {
+        int count = 0;
+        for (int pass = 0; pass < MAX_PASSES; pass++) {
+            boolean changed = false;
+
+            // Apply every published request
+            for (int i = 0; i < numPhilosophers; i++) {
+                int request = requests.get(i);
+                if (request == RETURN) {
+                    state[i] = State.THINKING;
+                    requests.set(i, NONE);
+                    done[count++] = i;
+                    changed = true;
+                } else if (request == TAKE) {
+                    state[i] = State.HUNGRY;
+                    requests.set(i, WAITING);
+                    changed = true;
+                }
+            }
+            if (!changed) {
+                return count;
+            }
+
+            // Let every hungry philosopher with free forks eat
+            for (int k = 0; k < numPhilosophers; k++) {
+                int i = (scanStart + k) % numPhilosophers;
+                if (state[i] == State.HUNGRY &&
+                    state[leftNeighbor(i)] != State.EATING &&
+                    state[rightNeighbor(i)] != State.EATING) {
+                    state[i] = State.EATING;
+                    requests.set(i, NONE);
+                    done[count++] = i;
+                    if (grantListener != null) {
+                        grantListener.accept(i);
+                    }
+                }
+            }
+            scanStart = (scanStart + 1) % numPhilosophers;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,140 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * LatencyHistogram - Log-linear bucketed histogram of durations
+ * Each power of two is split into 8 buckets, so percentiles are within 12.5%
+ * Meant to be written by one thread at a time and read by any thread
+ * All hot fields live inside one padded array, so histograms owned by
+ * different threads never share a cache line
+ */
+public class LatencyHistogram {
+
+    // Values below SUB_BUCKETS get their own bucket; above that, each power
+    // of two [2^e, 2^(e+1)) is split into SUB_BUCKETS equal buckets
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int NUM_BUCKETS = SUB_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    // Layout of the data array: one cache line of padding, the totals,
+    // padding up to the buckets, the buckets, then a trailing pad line
+    private static final int PAD = 8;
+    private static final int COUNT = PAD;
+    private static final int SUM = PAD + 1;
+    private static final int MAX = PAD + 2;
+    private static final int FIRST_BUCKET = 2 * PAD;
+    private static final int LENGTH = FIRST_BUCKET + NUM_BUCKETS + PAD;
+
+    private AtomicLongArray data;
+
+    /**
+     * Constructor - Create an empty histogram
+     */
+    public LatencyHistogram() {
+        data = new AtomicLongArray(LENGTH);
+    }
+
+    /**
+     * Record one value (negative values are counted as zero)
+     * Callers must not record concurrently into the same histogram
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        int bucket = FIRST_BUCKET + bucketOf(value);
+
+        // Single writer, so an ordered store is enough (no CAS needed)
+        data.lazySet(bucket, data.get(bucket) + 1);
+        data.lazySet(SUM, data.get(SUM) + value);
+        if (value > data.get(MAX)) {
+            data.lazySet(MAX, value);
+        }
+        data.lazySet(COUNT, data.get(COUNT) + 1);
+    }
+
+    /**
+     * Index of the bucket holding a non-negative value
+     */
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int sub = (int) (value >>> shift) - SUB_BUCKETS;
+        return SUB_BUCKETS + shift * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Largest value that falls into a bucket
+     */
+    private static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+        long sub = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        long lower = (SUB_BUCKETS + sub) << shift;
+        return lower + (1L << shift) - 1;
+    }
+
+    public long getCount() {
+        return data.get(COUNT);
+    }
+
+    public long getSum() {
+        return data.get(SUM);
+    }
+
+    public long getMax() {
+        return data.get(MAX);
+    }
+
+    public double getMean() {
+        long n = getCount();
+        return n == 0 ? 0.0 : (double) getSum() / n;
+    }
+
+    /**
+     * Approximate percentile: the upper bound of the bucket holding it
+     * @param percentile Value between 0 and 100
+     */
+    public long getPercentile(double percentile) {
+        return getPercentile(new LatencyHistogram[] { this }, percentile);
+    }
+
+    /**
+     * Approximate percentile over several histograms combined
+     * @param histograms Histograms to combine (e.g. one per philosopher)
+     * @param percentile Value between 0 and 100
+     */
+    public static long getPercentile(LatencyHistogram[] histograms, double percentile) {
+        long[] snapshot = new long[NUM_BUCKETS];
+        long total = 0;
+        long max = 0;
+        for (LatencyHistogram h : histograms) {
+            for (int b = 0; b < NUM_BUCKETS; b++) {
+                long n = h.data.get(FIRST_BUCKET + b);
+                snapshot[b] += n;
+                total += n;
+            }
+            max = Math.max(max, h.getMax());
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        if (rank < 1) {
+            rank = 1;
+        }
+
+        long seen = 0;
+        for (int b = 0; b < NUM_BUCKETS; b++) {
+            seen += snapshot[b];
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(b), max);
+            }
+        }
+        return max;
+    }
+}
@@ -10,6 +10,9 @@ public class Philosopher implements Runnable {
     private DiningServer server;
     private Random random;
     private int timesToEat;
+    private TimeDistribution thinkTime;
+    private TimeDistribution eatTime;
+    private TransitionLog log;
     
     /**
      * Constructor
@@ -18,27 +21,63 @@ public class Philosopher implements Runnable {
      * @param timesToEat Number of times this philosopher will eat
      */
     public Philosopher(int id, DiningServer server, int timesToEat) {
+        this(id, server, timesToEat, new Random(),
+            TimeDistribution.uniform(100, 500), TimeDistribution.uniform(100, 500));
+    }
+    
+    /**
+     * Constructor with explicit randomness and timing
+     * @param id Philosopher's ID (0-4)
+     * @param server The dining server for synchronization
+     * @param timesToEat Number of times this philosopher will eat
+     * @param random Random source (seed it for reproducible timings)
+     * @param thinkTime Distribution of thinking time in milliseconds
+     * @param eatTime Distribution of eating time in milliseconds
+     */
+    public Philosopher(int id, DiningServer server, int timesToEat, Random random,
+                       TimeDistribution thinkTime, TimeDistribution eatTime) {
+        this(id, server, timesToEat, random, thinkTime, eatTime, null);
+    }
+    
+    /**
+     * Constructor with explicit randomness, timing and logging
+     * @param id Philosopher's ID (0-4)
+     * @param server The dining server for synchronization
+     * @param timesToEat Number of times this philosopher will eat
+     * @param random Random source (seed it for reproducible timings)
+     * @param thinkTime Distribution of thinking time in milliseconds
+     * @param eatTime Distribution of eating time in milliseconds
+     * @param log Log shared with the server, so all lines come out in order
+     *            (null to print directly to System.out)
+     */
+    public Philosopher(int id, DiningServer server, int timesToEat, Random random,
+                       TimeDistribution thinkTime, TimeDistribution eatTime, TransitionLog log) {
         this.id = id;
         this.server = server;
-        this.random = new Random();
+        this.random = random;
         this.timesToEat = timesToEat;
+        this.thinkTime = thinkTime;
+        this.eatTime = eatTime;
+        this.log = log;
     }
     
     /**
      * Simulate thinking
      */
     private void think() throws InterruptedException {
-        System.out.println("Philosopher " + id + " is THINKING");
-        // Think for random time (100-500ms)
-        Thread.sleep(random.nextInt(400) + 100);
+        if (log != null) {
+            log.record(id, TransitionLog.Transition.STARTED_THINKING);
+        } else {
+            System.out.println("Philosopher " + id + " is THINKING");
+        }
+        Thread.sleep(thinkTime.sample(random));
     }
     
     /**
      * Simulate eating
      */
     private void eat() throws InterruptedException {
-        // Eat for random time (100-500ms)
-        Thread.sleep(random.nextInt(400) + 100);
+        Thread.sleep(eatTime.sample(random));
     }
     
     /**
@@ -61,7 +100,11 @@ public class Philosopher implements Runnable {
                 server.returnForks(id);
             }
             
-            System.out.println(">>> Philosopher " + id + " has finished dining (ate " + timesToEat + " times)");
+            if (log != null) {
+                log.record(id, TransitionLog.Transition.FINISHED_DINING, timesToEat);
+            } else {
+                System.out.println(">>> Philosopher " + id + " has finished dining (ate " + timesToEat + " times)");
+            }
             
         } catch (InterruptedException e) {
             System.err.println("Philosopher " + id + " was interrupted");
@@ -0,0 +1,78 @@
+import java.util.Random;
+
+/**
+ * TimeDistribution Interface
+ * Source of thinking and eating durations (in milliseconds)
+ */
+public interface TimeDistribution {
+
+    /**
+     * Draw the next duration
+     * @param random Random source to draw from (seed it for reproducible runs)
+     * @return Duration in milliseconds, never negative
+     */
+    public long sample(Random random);
+
+    /**
+     * Always the same duration
+     */
+    public static TimeDistribution fixed(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Duration must not be negative: " + millis);
+        }
+        return random -> millis;
+    }
+
+    /**
+     * Uniformly distributed duration in [min, max)
+     */
+    public static TimeDistribution uniform(long min, long max) {
+        if (min < 0 || max <= min) {
+            throw new IllegalArgumentException("Invalid uniform range: [" + min + ", " + max + ")");
+        }
+        long range = max - min;
+        return random -> min + (long) (random.nextDouble() * range);
+    }
+
+    /**
+     * Exponentially distributed duration with the given mean
+     */
+    public static TimeDistribution exponential(double mean) {
+        if (mean <= 0) {
+            throw new IllegalArgumentException("Mean must be positive: " + mean);
+        }
+        return random -> Math.round(-mean * Math.log(1.0 - random.nextDouble()));
+    }
+
+    /**
+     * Parse a distribution from text: "fixed:N", "uniform:MIN:MAX" or "exp:MEAN"
+     */
+    public static TimeDistribution parse(String text) {
+        String[] parts = text.split(":");
+        try {
+            switch (parts[0]) {
+                case "fixed":
+                    if (parts.length == 2) {
+                        return fixed(Long.parseLong(parts[1]));
+                    }
+                    break;
+                case "uniform":
+                    if (parts.length == 3) {
+                        return uniform(Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+                    }
+                    break;
+                case "exp":
+                    if (parts.length == 2) {
+                        return exponential(Double.parseDouble(parts[1]));
+                    }
+                    break;
+                default:
+                    break;
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number in distribution: " + text, e);
+        }
+        throw new IllegalArgumentException("Unknown distribution: " + text
+            + " (expected fixed:N, uniform:MIN:MAX or exp:MEAN)");
+    }
+}
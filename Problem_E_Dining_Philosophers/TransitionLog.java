@@ -0,0 +1,54 @@
+/**
+ * TransitionLog Interface
+ * Receives philosopher state transitions from a dining server (and the
+ * philosophers' own milestones). record() is called inside the server's
+ * critical section, so implementations must not block or do I/O there.
+ */
+public interface TransitionLog {
+
+    /**
+     * States a philosopher can move into, and milestones it reports itself
+     */
+    public enum Transition {
+        HUNGRY,             // server: wants to eat
+        EATING,             // server: got both forks
+        THINKING,           // server: returned the forks
+        STARTED_THINKING,   // philosopher: begins a thinking period
+        FINISHED_DINING     // philosopher: ate all its meals
+    }
+
+    /**
+     * A log that discards everything (logging turned off)
+     */
+    public static final TransitionLog OFF = (philosopherNumber, transition, value) -> { };
+
+    /**
+     * Called when a philosopher changes state
+     * @param philosopherNumber The ID of the philosopher
+     * @param transition The state the philosopher moved into
+     * @param value Meals eaten for FINISHED_DINING, otherwise 0
+     */
+    public void record(int philosopherNumber, Transition transition, int value);
+
+    /**
+     * Called when a philosopher changes state
+     * @param philosopherNumber The ID of the philosopher
+     * @param transition The state the philosopher moved into
+     */
+    public default void record(int philosopherNumber, Transition transition) {
+        record(philosopherNumber, transition, 0);
+    }
+
+    /**
+     * Called by a thread before it enters a critical section that records,
+     * so any per-thread setup happens outside the lock
+     */
+    public default void register() {
+    }
+
+    /**
+     * Flush anything still buffered and release resources
+     */
+    public default void close() {
+    }
+}